@@ -8,7 +8,6 @@ import java.time.format.DateTimeParseException;
 import java.util.*;
 
 public class AttendanceManager {
-    private static final String ATTENDANCE_DIR = "attendance_records";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
     
     public void markAttendance(Scanner sc, StudentManager studentManager) {
@@ -24,24 +23,67 @@ public class AttendanceManager {
         if (date == null) return;
         
         // Mark attendance for each student
+        boolean stopped = false;
         for (Student student : studentManager.getStudents()) {
             System.out.printf("\nStudent: %s (ID: %d)", student.getName(), student.getId());
             System.out.print("\nPresent? (y/n, default=y): ");
             String input = sc.nextLine().trim().toLowerCase();
             boolean isPresent = input.isEmpty() || input.equals("y");
             
-            student.markAttendance(date, isPresent);
+            try {
+                studentManager.recordAttendance(student.getId(), date, isPresent);
+            } catch (UncheckedIOException e) {
+                System.err.println("Error: " + e.getCause().getMessage());
+                System.out.println("Attendance marking stopped; marks recorded so far are kept.");
+                stopped = true;
+                break;
+            }
             System.out.printf("Marked %s as %s for %s%n", 
                 student.getName(), 
                 isPresent ? "PRESENT" : "ABSENT", 
                 date.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
         }
         
-        // Save attendance to file
-        saveAttendanceToFile(date, studentManager.getStudents());
+        if (stopped) {
+            // Don't list the students that were never asked as ABSENT
+            for (RosterShard shard : studentManager.getShards()) {
+                saveMarkedAttendanceFile(shard, date);
+            }
+        } else {
+            saveAttendanceFiles(date, studentManager);
+        }
+        // Persist the marks too, otherwise students.dat lags behind the archive after a restart
+        if (!studentManager.saveStudents()) {
+            System.err.println("Error: attendance files were written but the roster could not be saved.");
+        }
         System.out.println("\nAttendance marked successfully for " + date.format(DateTimeFormatter.ISO_LOCAL_DATE));
     }
     
+    /**
+     * Writes one section's file for the date with only the students that have
+     * a mark on it, for callers that may have marked just part of the school.
+     */
+    void saveMarkedAttendanceFile(RosterShard shard, LocalDate date) {
+        List<Student> marked = new ArrayList<>();
+        for (Student student : shard.getStudents()) {
+            if (student.hasAttendanceOn(date)) {
+                marked.add(student);
+            }
+        }
+        if (!marked.isEmpty()) {
+            saveAttendanceToFile(shard.getAttendanceDir(), date, marked);
+        }
+    }
+
+    /** Writes the day's attendance file into each section's own directory. */
+    void saveAttendanceFiles(LocalDate date, StudentManager studentManager) {
+        for (RosterShard shard : studentManager.getShards()) {
+            if (!shard.isEmpty()) {
+                saveAttendanceToFile(shard.getAttendanceDir(), date, shard.getStudents());
+            }
+        }
+    }
+    
     private LocalDate getDateFromUser(Scanner sc) {
         while (true) {
             try {
@@ -59,13 +101,13 @@ public class AttendanceManager {
         }
     }
     
-    private void saveAttendanceToFile(LocalDate date, List<Student> students) {
+    private void saveAttendanceToFile(String attendanceDir, LocalDate date, List<Student> students) {
         try {
             // Create directory if it doesn't exist
-            Files.createDirectories(Paths.get(ATTENDANCE_DIR));
+            Files.createDirectories(Paths.get(attendanceDir));
             
             String filename = String.format("%s/attendance_%s.txt", 
-                ATTENDANCE_DIR, 
+                attendanceDir, 
                 date.format(DateTimeFormatter.BASIC_ISO_DATE));
                 
             try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
@@ -103,11 +145,10 @@ public class AttendanceManager {
     public void viewAttendanceReport(Scanner sc, StudentManager studentManager) {
         System.out.println("\n--- Attendance Report ---");
         
-        // Get list of all attendance files
-        File dir = new File(ATTENDANCE_DIR);
-        File[] files = dir.listFiles((d, name) -> name.startsWith("attendance_") && name.endsWith(".txt"));
+        // Get list of all attendance files across sections
+        File[] files = listAttendanceFiles(studentManager);
         
-        if (files == null || files.length == 0) {
+        if (files.length == 0) {
             System.out.println("No attendance records found.");
             return;
         }
@@ -123,7 +164,10 @@ public class AttendanceManager {
                 .replace(".txt", "");
             try {
                 LocalDate date = LocalDate.parse(dateStr, DateTimeFormatter.BASIC_ISO_DATE);
-                System.out.printf("%d. %s%n", i+1, date.format(DateTimeFormatter.ISO_LOCAL_DATE));
+                String section = files[i].getParentFile().getName();
+                boolean isDefault = section.equals(new File(RosterShard.DEFAULT_ATTENDANCE_DIR).getName());
+                System.out.printf("%d. %s%s%n", i+1, date.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                    isDefault ? "" : " [" + section + "]");
             } catch (DateTimeParseException e) {
                 // Skip invalid filenames
             }
@@ -146,7 +190,65 @@ public class AttendanceManager {
     }
     
     /**
-     * Updates all attendance text files in ATTENDANCE_DIR so that student names
+     * Verifies in-memory attendance against the archive and optionally rebuilds
+     * it, for data saved before marks were persisted or after a crash.
+     */
+    public void rebuildFromArchive(Scanner sc, StudentManager studentManager) {
+        System.out.println("\n--- Verify / Rebuild Attendance ---");
+        System.out.print("Time budget in seconds (press Enter for 60): ");
+        long budgetSeconds = 60;
+        String budgetInput = sc.nextLine().trim();
+        if (!budgetInput.isEmpty()) {
+            try {
+                budgetSeconds = Long.parseLong(budgetInput);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid number, using 60 seconds.");
+            }
+        }
+
+        AttendanceRebuilder rebuilder = new AttendanceRebuilder();
+        AttendanceRebuilder.Report report = rebuilder.scan(studentManager, this, budgetSeconds * 1000);
+        report.print();
+        if (report.getCorrections() == 0) {
+            return;
+        }
+        if (!report.isComplete()) {
+            System.out.println("Scan was incomplete; only the files that were read will be applied.");
+        }
+
+        System.out.print("Apply archived attendance to the roster? (y/n): ");
+        String confirm = sc.nextLine().trim().toLowerCase();
+        if (confirm.equals("y") || confirm.equals("yes")) {
+            try {
+                rebuilder.apply(studentManager, report);
+                System.out.printf("Rebuilt attendance: %d entries corrected.%n", report.getCorrections());
+            } catch (StudentManager.PartialCommitException e) {
+                System.err.println("Rebuilt attendance, but not every section was saved: " + e.getMessage());
+            } catch (IOException e) {
+                System.err.println("Error saving rebuilt attendance, no changes made: " + e.getMessage());
+            }
+        } else {
+            System.out.println("No changes made.");
+        }
+    }
+
+    /**
+     * Collects the attendance files of every section's attendance directory.
+     */
+    File[] listAttendanceFiles(StudentManager studentManager) {
+        List<File> all = new ArrayList<>();
+        for (RosterShard shard : studentManager.getShards()) {
+            File dir = new File(shard.getAttendanceDir());
+            File[] files = dir.listFiles((d, name) -> name.startsWith("attendance_") && name.endsWith(".txt"));
+            if (files != null) {
+                all.addAll(Arrays.asList(files));
+            }
+        }
+        return all.toArray(new File[0]);
+    }
+
+    /**
+     * Updates all section attendance text files so that student names
      * reflect the current names stored in students.dat. Past files are static snapshots
      * by design, so this utility lets you sync them after a rename.
      */
@@ -156,9 +258,8 @@ public class AttendanceManager {
             idToName.put(s.getId(), s.getName());
         }
 
-        File dir = new File(ATTENDANCE_DIR);
-        File[] files = dir.listFiles((d, name) -> name.startsWith("attendance_") && name.endsWith(".txt"));
-        if (files == null || files.length == 0) {
+        File[] files = listAttendanceFiles(studentManager);
+        if (files.length == 0) {
             System.out.println("No attendance records found to sync.");
             return;
         }
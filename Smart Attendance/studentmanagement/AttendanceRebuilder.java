@@ -0,0 +1,306 @@
+package studentmanagement;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Rebuilds in-memory attendance from the attendance_records archive. Every day
+ * file is parsed as its own task on a pool sized to the available cores. Files
+ * are read into heap buffers rather than mapped, so no mapping keeps them
+ * locked against a later name sync on Windows. The archive is treated as the source
+ * of truth: the scan reports where Student attendance disagrees with it, and
+ * applying the scan overwrites those entries and saves the roster. Archived
+ * rows whose name differs from the roster are reported but never applied,
+ * since the ID may have been reused after a delete.
+ */
+public class AttendanceRebuilder {
+
+    /** One archived row: the status and the name the student had when the file was written */
+    private static class Row {
+        final boolean present;
+        final String name;
+
+        Row(boolean present, String name) {
+            this.present = present;
+            this.name = name;
+        }
+    }
+
+    /** Parsed contents of one attendance_YYYYMMDD.txt file */
+    private static class DayFile {
+        final File file;
+        final LocalDate date;
+        final Map<Integer, Row> rowsById;
+
+        DayFile(File file, LocalDate date, Map<Integer, Row> rowsById) {
+            this.file = file;
+            this.date = date;
+            this.rowsById = rowsById;
+        }
+    }
+
+    /** Outcome of a scan: the archived statuses plus everything that disagrees with the roster. */
+    public static class Report {
+        private final Map<Integer, Map<LocalDate, Row>> archive = new HashMap<>();
+        // Archived statuses that apply() writes; rows under a different name are left out
+        private final Map<Integer, Map<LocalDate, Boolean>> fixes = new HashMap<>();
+        private final List<String> discrepancies = new ArrayList<>();
+        private final List<String> nameMismatches = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        // Dates whose files were skipped or unreadable; memory-only marks there are not reported
+        private final Set<LocalDate> unscannedDates = new HashSet<>();
+        private boolean unscannedUnknownDate;
+        private int filesScanned;
+        private int filesSkipped;
+        private int corrections;
+        private long elapsedMillis;
+
+        public List<String> getDiscrepancies() { return discrepancies; }
+        public int getCorrections() { return corrections; }
+        public int getFilesSkipped() { return filesSkipped; }
+
+        public boolean isComplete() {
+            return filesSkipped == 0 && errors.isEmpty();
+        }
+
+        public void print() {
+            System.out.println("\n--- Attendance Verification Report ---");
+            System.out.printf("Files scanned: %d, skipped (time budget): %d, unreadable: %d, took %d ms%n",
+                filesScanned, filesSkipped, errors.size(), elapsedMillis);
+            for (String error : errors) {
+                System.out.println("ERROR    " + error);
+            }
+            if (!isComplete()) {
+                System.out.println("PARTIAL scan: marks with no archived row are not reported for unscanned dates.");
+            }
+            if (!nameMismatches.isEmpty()) {
+                System.out.println("Archived rows under a different name (ID reused, or a rename not yet synced); not applied:");
+                for (String mismatch : nameMismatches) {
+                    System.out.println(mismatch);
+                }
+            }
+            if (discrepancies.isEmpty()) {
+                System.out.println(isComplete()
+                    ? "In-memory attendance matches the archive."
+                    : "No discrepancies in the scanned files.");
+                return;
+            }
+            for (String discrepancy : discrepancies) {
+                System.out.println(discrepancy);
+            }
+            System.out.printf("%d discrepancies, %d correctable from the archive.%n",
+                discrepancies.size(), corrections);
+        }
+    }
+
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String SEPARATOR = "-".repeat(50);
+
+    private final int threads;
+
+    public AttendanceRebuilder() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public AttendanceRebuilder(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Parses the whole archive in parallel and compares it to the roster.
+     * Files not parsed within {@code timeBudgetMillis} are cancelled and
+     * counted as skipped, so a partial scan is never mistaken for a full one.
+     */
+    public Report scan(StudentManager studentManager, AttendanceManager attendanceManager, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        Report report = new Report();
+        File[] files = attendanceManager.listAttendanceFiles(studentManager);
+
+        List<Callable<DayFile>> tasks = new ArrayList<>(files.length);
+        for (File file : files) {
+            tasks.add(() -> parseDayFile(file));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<DayFile>> futures = pool.invokeAll(tasks, timeBudgetMillis, TimeUnit.MILLISECONDS);
+            // Merge in date order so a date archived in two sections resolves deterministically
+            List<DayFile> days = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                Future<DayFile> future = futures.get(i);
+                if (future.isCancelled()) {
+                    report.filesSkipped++;
+                    markUnscanned(report, files[i]);
+                    continue;
+                }
+                try {
+                    days.add(future.get());
+                    report.filesScanned++;
+                } catch (ExecutionException e) {
+                    report.errors.add(files[i].getPath() + ": " + e.getCause().getMessage());
+                    markUnscanned(report, files[i]);
+                }
+            }
+            days.sort(Comparator.comparing((DayFile d) -> d.date).thenComparing(d -> d.file.getPath()));
+            for (DayFile day : days) {
+                for (Map.Entry<Integer, Row> entry : day.rowsById.entrySet()) {
+                    report.archive.computeIfAbsent(entry.getKey(), id -> new HashMap<>())
+                        .put(day.date, entry.getValue());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        reconcile(studentManager, report);
+        report.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Overwrites roster attendance with the archived statuses. All corrections
+     * go through one batch, so each touched section is saved once and the
+     * change log receives a single append. If saving fails, nothing is applied.
+     * Rows reported as name mismatches are skipped.
+     */
+    public void apply(StudentManager studentManager, Report report) throws IOException {
+        studentManager.beginBatch();
+        for (Map.Entry<Integer, Map<LocalDate, Boolean>> entry : report.fixes.entrySet()) {
+            Student student = studentManager.findStudentById(entry.getKey());
+            if (student == null) continue;
+            Map<LocalDate, Boolean> memory = student.getAttendance();
+            for (Map.Entry<LocalDate, Boolean> day : entry.getValue().entrySet()) {
+                if (!day.getValue().equals(memory.get(day.getKey()))) {
+                    studentManager.recordAttendance(student.getId(), day.getKey(), day.getValue());
+                }
+            }
+        }
+        studentManager.commitBatch();
+    }
+
+    private static void markUnscanned(Report report, File file) {
+        LocalDate date = dateFromFileName(file.getName());
+        if (date != null) {
+            report.unscannedDates.add(date);
+        } else {
+            report.unscannedUnknownDate = true;
+        }
+    }
+
+    private void reconcile(StudentManager studentManager, Report report) {
+        Set<Integer> rosterIds = new HashSet<>();
+        for (Student student : studentManager.getStudents()) {
+            rosterIds.add(student.getId());
+            Map<LocalDate, Boolean> memory = student.getAttendance();
+            Map<LocalDate, Boolean> archived = new TreeMap<>();
+            Map<String, Integer> otherNames = new TreeMap<>();
+            for (Map.Entry<LocalDate, Row> day : report.archive
+                    .getOrDefault(student.getId(), Collections.emptyMap()).entrySet()) {
+                if (day.getValue().name.equals(student.getName().trim())) {
+                    archived.put(day.getKey(), day.getValue().present);
+                } else {
+                    otherNames.merge(day.getValue().name, 1, Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> other : otherNames.entrySet()) {
+                report.nameMismatches.add(String.format("NAMEDIFF %-5d %-25s archived as '%s' on %d days",
+                    student.getId(), student.getName(), other.getKey(), other.getValue()));
+            }
+
+            for (Map.Entry<LocalDate, Boolean> day : archived.entrySet()) {
+                Boolean current = memory.get(day.getKey());
+                if (current == null) {
+                    report.discrepancies.add(String.format("MISSING  %-5d %-25s %s archived %s, not in memory",
+                        student.getId(), student.getName(), day.getKey(), status(day.getValue())));
+                } else if (!current.equals(day.getValue())) {
+                    report.discrepancies.add(String.format("MISMATCH %-5d %-25s %s archived %s, memory %s",
+                        student.getId(), student.getName(), day.getKey(), status(day.getValue()), status(current)));
+                } else {
+                    continue;
+                }
+                report.fixes.computeIfAbsent(student.getId(), id -> new HashMap<>()).put(day.getKey(), day.getValue());
+                report.corrections++;
+            }
+            if (report.unscannedUnknownDate) continue;
+            for (LocalDate date : new TreeSet<>(memory.keySet())) {
+                if (!archived.containsKey(date) && !report.unscannedDates.contains(date)) {
+                    report.discrepancies.add(String.format("UNFILED  %-5d %-25s %s in memory as %s, no archived row",
+                        student.getId(), student.getName(), date, status(memory.get(date))));
+                }
+            }
+        }
+        for (Integer id : new TreeSet<>(report.archive.keySet())) {
+            if (!rosterIds.contains(id)) {
+                report.discrepancies.add(String.format("UNKNOWN  %-5d archived on %d days, not in roster",
+                    id, report.archive.get(id).size()));
+            }
+        }
+    }
+
+    private static String status(boolean present) {
+        return present ? "PRESENT" : "ABSENT";
+    }
+
+    /**
+     * Parses the layout written by AttendanceManager: a "Date:" header, a
+     * dashed separator, fixed-width rows, then a blank line and the summary.
+     */
+    private static DayFile parseDayFile(File file) throws IOException {
+        LocalDate date = dateFromFileName(file.getName());
+        Map<Integer, Row> rowsById = new HashMap<>();
+        boolean inRowsSection = false;
+        for (String line : Files.readAllLines(file.toPath(), Charset.defaultCharset())) {
+            if (!inRowsSection) {
+                if (line.startsWith("Date:")) {
+                    try {
+                        date = LocalDate.parse(line.substring(5).trim());
+                    } catch (DateTimeParseException e) {
+                        // Fall back to the date in the file name
+                    }
+                } else if (line.equals(SEPARATOR)) {
+                    inRowsSection = true;
+                }
+                continue;
+            }
+            if (line.trim().isEmpty() || line.startsWith("---")) {
+                break;
+            }
+
+            // "%-5d %-30s %-10s"; a name longer than the column pushes the status right
+            String row = line.trim();
+            String[] tokens = row.split("\\s+");
+            try {
+                int id = Integer.parseInt(tokens[0]);
+                String status = tokens[tokens.length - 1];
+                if (tokens.length > 1 && (status.equals("PRESENT") || status.equals("ABSENT"))) {
+                    String name = row.substring(tokens[0].length(), row.length() - status.length()).trim();
+                    rowsById.put(id, new Row(status.equals("PRESENT"), name));
+                }
+            } catch (NumberFormatException e) {
+                // Not a data row
+            }
+        }
+
+        if (date == null) {
+            throw new IOException("no date in header or file name");
+        }
+        return new DayFile(file, date, rowsById);
+    }
+
+    private static LocalDate dateFromFileName(String name) {
+        try {
+            return LocalDate.parse(name.replace("attendance_", "").replace(".txt", ""), FILE_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
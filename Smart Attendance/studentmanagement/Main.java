@@ -1,14 +1,149 @@
 package studentmanagement;
 
+import java.io.*;
 import java.util.Scanner;
 
+/**
+ * Interactive menu by default. Optional arguments:
+ * <pre>
+ *   --replicate-port PORT   record every change and serve it to standbys on PORT
+ *   --standby HOST:PORT     tail the primary at HOST:PORT until "promote" is typed
+ *   --script FILE|-         run a command script (see ScriptRunner) instead of the menu
+ *   --batch-size N          commands per script transaction when no "commit" is given
+ * </pre>
+ */
 public class Main {
     public static void main(String[] args) {
+        Integer replicatePort = null;
+        String standbyOf = null;
+        String standbyHost = null;
+        int standbyPort = 0;
+        String script = null;
+        int batchSize = ScriptRunner.DEFAULT_BATCH_SIZE;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--replicate-port") && i + 1 < args.length) {
+                    replicatePort = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--standby") && i + 1 < args.length) {
+                    standbyOf = args[++i];
+                    int colon = standbyOf.lastIndexOf(':');
+                    try {
+                        standbyPort = colon > 0 ? Integer.parseInt(standbyOf.substring(colon + 1)) : -1;
+                    } catch (NumberFormatException e) {
+                        standbyPort = -1;
+                    }
+                    if (standbyPort < 1 || standbyPort > 65535) {
+                        System.err.println("Usage: --standby HOST:PORT (got '" + standbyOf + "')");
+                        System.exit(2);
+                    }
+                    standbyHost = standbyOf.substring(0, colon);
+                } else if (args[i].equals("--script") && i + 1 < args.length) {
+                    script = args[++i];
+                } else if (args[i].equals("--batch-size") && i + 1 < args.length) {
+                    batchSize = Integer.parseInt(args[++i]);
+                } else {
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number: " + e.getMessage());
+            System.exit(2);
+        }
+
         Scanner sc = new Scanner(System.in);
-        StudentManager studentManager = new StudentManager();
+        StudentManager studentManager = new StudentManager(script == null);
         AttendanceManager attendanceManager = new AttendanceManager();
         ResultManager resultManager = new ResultManager();
 
+        // Script output on stdout is machine-readable, so status messages go to stderr there
+        PrintStream status = script == null ? System.out : System.err;
+        MutationLog mutationLog = null;
+        ReplicationServer replicationServer = null;
+        try {
+            if (replicatePort != null || standbyOf != null) {
+                mutationLog = new MutationLog();
+            }
+            if (standbyOf != null && !runStandby(sc, studentManager, attendanceManager, mutationLog,
+                    standbyHost, standbyPort)) {
+                mutationLog.close();
+                return;
+            }
+            if (mutationLog != null) {
+                studentManager.setMutationLog(mutationLog);
+            }
+            if (replicatePort != null) {
+                replicationServer = new ReplicationServer(mutationLog, replicatePort, status);
+                replicationServer.start();
+                status.printf("Serving mutation log to standbys on port %d (seq %d)%n",
+                    replicationServer.getPort(), mutationLog.getLastSeq());
+            }
+        } catch (IOException e) {
+            System.err.println("Error starting replication: " + e.getMessage());
+            return;
+        }
+
+        int exitCode = 0;
+        if (script != null) {
+            exitCode = runScript(script, batchSize, studentManager, attendanceManager);
+        } else {
+            runMenu(sc, studentManager, attendanceManager, resultManager);
+        }
+        sc.close();
+
+        try {
+            if (replicationServer != null) replicationServer.close();
+            if (mutationLog != null) mutationLog.close();
+        } catch (IOException e) {
+            System.err.println("Error closing mutation log: " + e.getMessage());
+        }
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    private static int runScript(String script, int batchSize, StudentManager studentManager,
+                                 AttendanceManager attendanceManager) {
+        ScriptRunner runner = new ScriptRunner(studentManager, attendanceManager, batchSize, System.out);
+        if (script.equals("-")) {
+            return runner.run(new InputStreamReader(System.in));
+        }
+        try (Reader reader = new FileReader(script)) {
+            return runner.run(reader);
+        } catch (IOException e) {
+            System.err.println("Error reading script: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    /** Tails the primary until promoted; returns false if input ended first. */
+    private static boolean runStandby(Scanner sc, StudentManager studentManager, AttendanceManager attendanceManager,
+                                      MutationLog mutationLog, String host, int port) {
+        String primary = host + ":" + port;
+        StandbyReplica replica = new StandbyReplica(studentManager, attendanceManager, mutationLog, host, port);
+        replica.start();
+        System.out.println("Running as standby of " + primary + ". Type 'status' or 'promote'.");
+
+        while (sc.hasNextLine()) {
+            String command = sc.nextLine().trim().toLowerCase();
+            if (command.equals("promote")) {
+                replica.promote();
+                System.out.printf("Promoted to primary at seq %d%n", replica.getAppliedSeq());
+                return true;
+            } else if (command.equals("status")) {
+                System.out.printf("Applied seq %d, %d students%n",
+                    replica.getAppliedSeq(), studentManager.getStudents().size());
+            } else if (!command.isEmpty()) {
+                System.out.println("Unknown command. Type 'status' or 'promote'.");
+            }
+        }
+        // Input closed without promotion: stop tailing and keep the copy as-is
+        replica.promote();
+        return false;
+    }
+
+    private static void runMenu(Scanner sc, StudentManager studentManager, AttendanceManager attendanceManager,
+                                ResultManager resultManager) {
         while (true) {
             System.out.println("\n===== Student Management System =====");
             System.out.println("1. Manage Students");
@@ -36,7 +171,6 @@ public class Main {
                         break;
                     case 5:
                         System.out.println("Exiting...");
-                        sc.close();
                         return;
                     default:
                         System.out.println("Invalid choice, try again!");
@@ -52,7 +186,8 @@ public class Main {
             System.out.println("\n--- Attendance Management ---");
             System.out.println("1. Mark Attendance");
             System.out.println("2. View Attendance Report");
-            System.out.println("3. Back to Main Menu");
+            System.out.println("3. Verify/Rebuild from Archive");
+            System.out.println("4. Back to Main Menu");
             System.out.print("Enter choice: ");
             
             try {
@@ -66,6 +201,9 @@ public class Main {
                         attendanceManager.viewAttendanceReport(sc, studentManager);
                         break;
                     case 3:
+                        attendanceManager.rebuildFromArchive(sc, studentManager);
+                        break;
+                    case 4:
                         return;
                     default:
                         System.out.println("Invalid choice, try again!");
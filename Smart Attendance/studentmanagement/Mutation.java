@@ -0,0 +1,128 @@
+package studentmanagement;
+
+import java.time.LocalDate;
+
+/**
+ * A single roster change captured for log shipping. Mutations are encoded as
+ * one tab-separated line: seq, type, student ID, then the type's own fields.
+ * Applying a mutation is idempotent, so replaying a log over a copy that
+ * already contains some of its changes converges to the same roster.
+ */
+public class Mutation {
+    public enum Type { ADD, RENAME, DELETE, MARKS, ATTENDANCE }
+
+    private long seq;
+    private final Type type;
+    private final int studentId;
+    private final String name;
+    private final String section;
+    private final double marks;
+    private final LocalDate date;
+    private final boolean present;
+
+    private Mutation(long seq, Type type, int studentId, String name, String section,
+                     double marks, LocalDate date, boolean present) {
+        this.seq = seq;
+        this.type = type;
+        this.studentId = studentId;
+        this.name = name;
+        this.section = section;
+        this.marks = marks;
+        this.date = date;
+        this.present = present;
+    }
+
+    public static Mutation add(int id, String name, String section) {
+        return new Mutation(0, Type.ADD, id, name, section, 0, null, false);
+    }
+
+    public static Mutation rename(int id, String name) {
+        return new Mutation(0, Type.RENAME, id, name, null, 0, null, false);
+    }
+
+    public static Mutation delete(int id) {
+        return new Mutation(0, Type.DELETE, id, null, null, 0, null, false);
+    }
+
+    public static Mutation marks(int id, double marks) {
+        return new Mutation(0, Type.MARKS, id, null, null, marks, null, false);
+    }
+
+    public static Mutation attendance(int id, LocalDate date, boolean present) {
+        return new Mutation(0, Type.ATTENDANCE, id, null, null, 0, date, present);
+    }
+
+    public long getSeq() { return seq; }
+    void setSeq(long seq) { this.seq = seq; }
+    public Type getType() { return type; }
+    public int getStudentId() { return studentId; }
+    public String getName() { return name; }
+    public String getSection() { return section; }
+    public double getMarks() { return marks; }
+    public LocalDate getDate() { return date; }
+    public boolean isPresent() { return present; }
+
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(seq).append('\t').append(type).append('\t').append(studentId);
+        switch (type) {
+            case ADD:
+                sb.append('\t').append(escape(section)).append('\t').append(escape(name));
+                break;
+            case RENAME:
+                sb.append('\t').append(escape(name));
+                break;
+            case MARKS:
+                sb.append('\t').append(marks);
+                break;
+            case ATTENDANCE:
+                sb.append('\t').append(date).append('\t').append(present);
+                break;
+            default:
+                break;
+        }
+        return sb.toString();
+    }
+
+    public static Mutation decode(String line) {
+        String[] f = line.split("\t", -1);
+        try {
+            long seq = Long.parseLong(f[0]);
+            Type type = Type.valueOf(f[1]);
+            int id = Integer.parseInt(f[2]);
+            switch (type) {
+                case ADD:
+                    return new Mutation(seq, type, id, unescape(f[4]), unescape(f[3]), 0, null, false);
+                case RENAME:
+                    return new Mutation(seq, type, id, unescape(f[3]), null, 0, null, false);
+                case MARKS:
+                    return new Mutation(seq, type, id, null, null, Double.parseDouble(f[3]), null, false);
+                case ATTENDANCE:
+                    return new Mutation(seq, type, id, null, null, 0,
+                        LocalDate.parse(f[3]), Boolean.parseBoolean(f[4]));
+                default:
+                    return new Mutation(seq, type, id, null, null, 0, null, false);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed mutation: " + line, e);
+        }
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
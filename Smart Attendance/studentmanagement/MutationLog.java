@@ -0,0 +1,429 @@
+package studentmanagement;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only change-capture log of roster mutations. Every appended mutation
+ * gets the next sequence number, is written to mutations.log and is handed to
+ * each subscribed standby stream. Writes are flushed once per appended batch.
+ *
+ * <p>A standby's backlog is read from the file outside the append lock, so a
+ * reconnect does not stall the primary. Once entries are both saved in the
+ * section files and confirmed by every connected standby, the log is
+ * compacted: the file is rewritten starting with a "CHECKPOINT seq" header
+ * followed by the newer entries only.
+ */
+public class MutationLog implements Closeable {
+    static final String LOG_FILE = "mutations.log";
+    private static final String CHECKPOINT_PREFIX = "CHECKPOINT\t";
+    private static final int INDEX_INTERVAL = 256;
+    private static final long COMPACT_THRESHOLD = 10000;
+
+    /** Receives backlog entries in batches while a subscription catches up. */
+    public interface BatchSink {
+        void accept(List<Mutation> batch) throws IOException;
+    }
+
+    /** One standby stream: the backlog up to {@code backlogEndSeq} comes from the file, the rest from {@code live}. */
+    public static class Subscription {
+        private final long fromSeq;
+        private final long backlogEndSeq;
+        private final long backlogEndOffset;
+        private final BlockingQueue<Mutation> live = new LinkedBlockingQueue<>();
+        private volatile long ackedSeq;
+
+        private Subscription(long fromSeq, long backlogEndSeq, long backlogEndOffset) {
+            this.fromSeq = fromSeq;
+            this.backlogEndSeq = backlogEndSeq;
+            this.backlogEndOffset = backlogEndOffset;
+            this.ackedSeq = fromSeq;
+        }
+
+        public BlockingQueue<Mutation> getLive() { return live; }
+
+        public void ack(long seq) {
+            ackedSeq = Math.max(ackedSeq, seq);
+        }
+    }
+
+    private final File file;
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    // Lock order: fileLock before this object's monitor. Backlog readers hold
+    // the read lock; compaction holds the write lock while it replaces the file.
+    private final ReentrantReadWriteLock fileLock = new ReentrantReadWriteLock();
+    // Sparse seq -> byte offset of that entry's line, for entries written by this process
+    private final TreeMap<Long, Long> index = new TreeMap<>();
+    private FileOutputStream fileOut;
+    private OutputStream out;
+    private long size;
+    private long lastSeq;
+    private long checkpointSeq;
+    private long durableSeq;
+    private boolean retainUntilAcked;
+
+    public MutationLog() throws IOException {
+        this(new File(LOG_FILE));
+    }
+
+    public MutationLog(File file) throws IOException {
+        this.file = file;
+        truncateIncompleteTail(file);
+        this.checkpointSeq = readCheckpoint(file);
+        this.lastSeq = Math.max(checkpointSeq, readLastSeq(file));
+        this.durableSeq = checkpointSeq;
+        this.size = file.length();
+        openForAppend();
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Keeps entries until every connected standby has acknowledged them.
+     * Set on a primary that serves standbys; a standby's own log only waits
+     * for its data to be saved.
+     */
+    public synchronized void setRetainUntilAcked(boolean retainUntilAcked) {
+        this.retainUntilAcked = retainUntilAcked;
+    }
+
+    /** Records that every mutation up to {@code seq} is saved in the section files. */
+    public synchronized void markDurable(long seq) {
+        durableSeq = Math.max(durableSeq, Math.min(seq, lastSeq));
+    }
+
+    /**
+     * Assigns sequence numbers to locally produced mutations and ships them.
+     * On failure nothing is shipped and the sequence does not advance.
+     */
+    public synchronized void append(List<Mutation> batch) throws IOException {
+        long seq = lastSeq;
+        for (Mutation m : batch) {
+            m.setSeq(++seq);
+        }
+        write(batch);
+        lastSeq = seq;
+    }
+
+    /**
+     * Records mutations received from the primary, keeping their sequence
+     * numbers. Anything at or below the current sequence was already applied.
+     */
+    public synchronized void appendReplicated(List<Mutation> batch) throws IOException {
+        List<Mutation> fresh = new ArrayList<>(batch.size());
+        long seq = lastSeq;
+        for (Mutation m : batch) {
+            if (m.getSeq() > seq) {
+                fresh.add(m);
+                seq = m.getSeq();
+            }
+        }
+        write(fresh);
+        lastSeq = seq;
+    }
+
+    private void write(List<Mutation> batch) throws IOException {
+        if (batch.isEmpty()) return;
+        long offset = size;
+        Map<Long, Long> newIndex = new HashMap<>();
+        try {
+            for (Mutation m : batch) {
+                byte[] line = (m.encode() + "\n").getBytes(StandardCharsets.UTF_8);
+                if (index.isEmpty() || m.getSeq() % INDEX_INTERVAL == 0) {
+                    newIndex.put(m.getSeq(), offset);
+                }
+                out.write(line);
+                offset += line.length;
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Cut back any partial write so the file still ends on a complete entry
+            try {
+                fileOut.getChannel().truncate(size);
+            } catch (IOException ignored) {
+                // The torn tail is also cut when the log is next opened
+            }
+            out = new BufferedOutputStream(fileOut);
+            throw e;
+        }
+        size = offset;
+        index.putAll(newIndex);
+        for (Subscription subscription : subscribers) {
+            subscription.live.addAll(batch);
+        }
+    }
+
+    /**
+     * Registers a standby stream after {@code fromSeq}. Only the registration
+     * happens under the append lock; the backlog is then read with
+     * {@link #readBacklog} while appends continue into the live queue.
+     */
+    public synchronized Subscription subscribe(long fromSeq) throws IOException {
+        if (fromSeq < checkpointSeq) {
+            throw new IOException(String.format(
+                "standby is at seq %d but the log was checkpointed at seq %d; reseed it from a copy of the data",
+                fromSeq, checkpointSeq));
+        }
+        Subscription subscription = new Subscription(fromSeq, lastSeq, size);
+        subscribers.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Waits until every connected standby has acknowledged the last entry,
+     * so a shutdown does not cut off mutations still in flight.
+     */
+    public boolean awaitAcked(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            long target = getLastSeq();
+            boolean caughtUp = true;
+            for (Subscription subscription : subscribers) {
+                caughtUp &= subscription.ackedSeq >= target;
+            }
+            if (caughtUp) return true;
+            if (System.currentTimeMillis() >= deadline) return false;
+            Thread.sleep(10);
+        }
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        subscribers.remove(subscription);
+    }
+
+    /** Streams the entries between the subscription's start and its registration point. */
+    public void readBacklog(Subscription subscription, int batchSize, BatchSink sink) throws IOException {
+        if (subscription.backlogEndSeq <= subscription.fromSeq) return;
+        fileLock.readLock().lock();
+        try {
+            long start;
+            synchronized (this) {
+                Map.Entry<Long, Long> floor = index.floorEntry(subscription.fromSeq + 1);
+                start = floor != null ? floor.getValue() : 0;
+            }
+            try (FileChannel channel = FileChannel.open(file.toPath())) {
+                channel.position(start);
+                long length = subscription.backlogEndOffset - start;
+                BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new BoundedInputStream(Channels.newInputStream(channel), length), StandardCharsets.UTF_8));
+                List<Mutation> batch = new ArrayList<>(batchSize);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty() || line.startsWith(CHECKPOINT_PREFIX)) continue;
+                    Mutation m;
+                    try {
+                        m = Mutation.decode(line);
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("Skipping undecodable mutation log entry: " + e.getMessage());
+                        continue;
+                    }
+                    if (m.getSeq() <= subscription.fromSeq) continue;
+                    if (m.getSeq() > subscription.backlogEndSeq) break;
+                    batch.add(m);
+                    if (batch.size() >= batchSize) {
+                        sink.accept(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    sink.accept(batch);
+                }
+            }
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops entries that are saved and, on a serving primary, acknowledged by
+     * every connected standby. Does nothing until enough entries accumulate.
+     */
+    public void maybeCheckpoint() throws IOException {
+        synchronized (this) {
+            if (checkpointTarget() - checkpointSeq < COMPACT_THRESHOLD) return;
+        }
+        fileLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                long target = checkpointTarget();
+                if (target - checkpointSeq < COMPACT_THRESHOLD) return;
+                compact(target);
+            }
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    private long checkpointTarget() {
+        long target = durableSeq;
+        if (retainUntilAcked) {
+            if (subscribers.isEmpty()) return checkpointSeq;
+            for (Subscription subscription : subscribers) {
+                target = Math.min(target, subscription.ackedSeq);
+            }
+        }
+        return target;
+    }
+
+    private void compact(long target) throws IOException {
+        out.flush();
+        long keepFrom = findOffsetAfter(target);
+        byte[] header = (CHECKPOINT_PREFIX + target + "\n").getBytes(StandardCharsets.UTF_8);
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileChannel source = FileChannel.open(file.toPath());
+             FileOutputStream dest = new FileOutputStream(temp)) {
+            dest.write(header);
+            source.transferTo(keepFrom, size - keepFrom, dest.getChannel());
+        }
+
+        out.close();
+        try {
+            Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            openForAppend();
+        }
+
+        long shift = keepFrom - header.length;
+        TreeMap<Long, Long> shifted = new TreeMap<>();
+        for (Map.Entry<Long, Long> entry : index.tailMap(target, false).entrySet()) {
+            shifted.put(entry.getKey(), entry.getValue() - shift);
+        }
+        index.clear();
+        index.putAll(shifted);
+        size = file.length();
+        checkpointSeq = target;
+    }
+
+    /** Byte offset of the first entry with a sequence above {@code seq}. */
+    private long findOffsetAfter(long seq) throws IOException {
+        Map.Entry<Long, Long> floor = index.floorEntry(seq);
+        long offset = floor != null ? floor.getValue() : 0;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(offset);
+            while (offset < size) {
+                String line = raf.readLine();
+                if (line == null) break;
+                if (!line.startsWith(CHECKPOINT_PREFIX)) {
+                    int tab = line.indexOf('\t');
+                    if (tab > 0 && Long.parseLong(line.substring(0, tab)) > seq) {
+                        return offset;
+                    }
+                }
+                offset = raf.getFilePointer();
+            }
+        }
+        return size;
+    }
+
+    private void openForAppend() throws IOException {
+        fileOut = new FileOutputStream(file, true);
+        out = new BufferedOutputStream(fileOut);
+    }
+
+    /**
+     * The log is flushed but not fsynced, so a crash can leave a half-written
+     * last line. Cut the file back to its last newline so new entries start
+     * on a line of their own.
+     */
+    private static void truncateIncompleteTail(File file) throws IOException {
+        if (!file.exists()) return;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long end = raf.length();
+            long pos = end;
+            while (pos > 0) {
+                raf.seek(pos - 1);
+                if (raf.read() == '\n') break;
+                pos--;
+            }
+            if (pos < end) {
+                System.err.printf("Discarding %d bytes of incomplete entry at end of %s%n", end - pos, file);
+                raf.getChannel().truncate(pos);
+            }
+        }
+    }
+
+    private static long readCheckpoint(File file) throws IOException {
+        if (!file.exists()) return 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String first = reader.readLine();
+            if (first != null && first.startsWith(CHECKPOINT_PREFIX)) {
+                return Long.parseLong(first.substring(CHECKPOINT_PREFIX.length()).trim());
+            }
+        }
+        return 0;
+    }
+
+    /** Sequences only grow, so the last complete line holds the last sequence; only the tail is read. */
+    private static long readLastSeq(File file) throws IOException {
+        if (!file.exists()) return 0;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long end = raf.length();
+            for (long chunk = 4096; ; chunk *= 2) {
+                long start = Math.max(0, end - chunk);
+                byte[] bytes = new byte[(int) (end - start)];
+                raf.seek(start);
+                raf.readFully(bytes);
+                String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n");
+                // The first line of a chunk may be cut off unless the chunk starts the file
+                for (int i = lines.length - 1; i >= (start == 0 ? 0 : 1); i--) {
+                    String line = lines[i].trim();
+                    int tab = line.indexOf('\t');
+                    if (tab <= 0) continue;
+                    try {
+                        if (line.startsWith(CHECKPOINT_PREFIX)) {
+                            return Long.parseLong(line.substring(CHECKPOINT_PREFIX.length()));
+                        }
+                        return Long.parseLong(line.substring(0, tab));
+                    } catch (NumberFormatException e) {
+                        System.err.println("Skipping undecodable mutation log entry: " + line);
+                    }
+                }
+                if (start == 0) return 0;
+            }
+        }
+    }
+
+    /** Limits a stream to the bytes that were complete when a subscription was registered. */
+    private static class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,155 @@
+package studentmanagement;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Primary side of log shipping. A standby connects, sends "FROM <seq>" with
+ * the last sequence it has applied, and then receives every later mutation.
+ * Mutations are sent in batches without waiting for acknowledgements, so a
+ * burst of marks goes out as a few large writes instead of one per change.
+ * Acknowledgements flow back asynchronously and only drive log checkpoints.
+ */
+public class ReplicationServer implements Closeable {
+    private static final int MAX_BATCH = 1024;
+    private static final long SHUTDOWN_DRAIN_MS = 5000;
+
+    private final MutationLog log;
+    private final ServerSocket serverSocket;
+    private final PrintStream status;
+
+    /** @param status where connection notices go; stderr keeps script output clean */
+    public ReplicationServer(MutationLog log, int port, PrintStream status) throws IOException {
+        this.log = log;
+        this.status = status;
+        log.setRetainUntilAcked(true);
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void start() {
+        Thread acceptor = new Thread(this::acceptLoop, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread sender = new Thread(() -> serve(socket), "replication-sender-" + socket.getPort());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Error accepting standby connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        MutationLog.Subscription subscription = null;
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                 s.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                 s.getOutputStream(), StandardCharsets.UTF_8))) {
+            s.setTcpNoDelay(true);
+            String hello = in.readLine();
+            if (hello == null || !hello.startsWith("FROM ")) {
+                return;
+            }
+            long fromSeq = Long.parseLong(hello.substring(5).trim());
+            try {
+                subscription = log.subscribe(fromSeq);
+            } catch (IOException e) {
+                out.write("ERROR " + e.getMessage());
+                out.newLine();
+                out.flush();
+                throw e;
+            }
+            status.printf("%nStandby %s connected, streaming from seq %d%n",
+                s.getRemoteSocketAddress(), fromSeq);
+            startAckReader(s, in, subscription, Thread.currentThread());
+
+            log.readBacklog(subscription, MAX_BATCH, batch -> send(out, batch));
+            BlockingQueue<Mutation> live = subscription.getLive();
+            List<Mutation> batch = new ArrayList<>(MAX_BATCH);
+            while (!s.isClosed()) {
+                batch.add(live.take());
+                live.drainTo(batch, MAX_BATCH - 1);
+                send(out, batch);
+                batch.clear();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // IllegalArgumentException covers a bad FROM line and undecodable log entries
+            System.err.println("Standby connection closed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (subscription != null) {
+                log.unsubscribe(subscription);
+            }
+        }
+    }
+
+    private static void send(BufferedWriter out, List<Mutation> batch) throws IOException {
+        for (Mutation m : batch) {
+            out.write(m.encode());
+            out.newLine();
+        }
+        out.flush();
+    }
+
+    /**
+     * The standby answers each applied batch with "ACK <seq>". Acks let the
+     * log be checkpointed; the sender never waits for them.
+     */
+    private void startAckReader(Socket socket, BufferedReader in, MutationLog.Subscription subscription,
+                                Thread sender) {
+        Thread reader = new Thread(() -> {
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith("ACK ")) {
+                        subscription.ack(Long.parseLong(line.substring(4).trim()));
+                        log.maybeCheckpoint();
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // Falls through to closing the connection
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+            // Wake the sender if it is waiting for the next mutation
+            sender.interrupt();
+        }, "replication-acks-" + socket.getPort());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /** Stops accepting standbys after giving connected ones a moment to catch up. */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!log.awaitAcked(SHUTDOWN_DRAIN_MS)) {
+                System.err.println("Shutting down before every standby confirmed the last mutation.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        serverSocket.close();
+    }
+}
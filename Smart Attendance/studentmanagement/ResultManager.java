@@ -42,14 +42,15 @@ public class ResultManager {
 
     private void displayAllResults(List<Student> students) {
         System.out.println("\n--- All Student Results ---");
-        System.out.printf("%-5s %-20s %-10s %-10s%n",
-                "ID", "Name", "Present", "Marks");
-        System.out.println("-".repeat(50));
+        System.out.printf("%-5s %-20s %-10s %-10s %-10s%n",
+                "ID", "Name", "Section", "Present", "Marks");
+        System.out.println("-".repeat(60));
 
         for (Student student : students) {
-            System.out.printf("%-5d %-20s %-10s %-10.2f%n",
+            System.out.printf("%-5d %-20s %-10s %-10s %-10.2f%n",
                     student.getId(),
                     student.getName(),
+                    student.getSection(),
                     student.getTotalDaysPresent() > 0 ? "Yes" : "No",
                     student.getMarks());
         }
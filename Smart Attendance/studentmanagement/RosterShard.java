@@ -0,0 +1,130 @@
+package studentmanagement;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * One class/section of the roster. Each shard owns its own data file and
+ * attendance directory, so saving a change only rewrites that section's file.
+ * The default section keeps the original students.dat / attendance_records
+ * locations so existing data is picked up unchanged.
+ */
+public class RosterShard {
+    static final String DEFAULT_DATA_FILE = "students.dat";
+    static final String DEFAULT_ATTENDANCE_DIR = "attendance_records";
+    static final String DATA_FILE_PREFIX = "students_";
+    static final String DATA_FILE_SUFFIX = ".dat";
+
+    private final String section;
+    private final String dataFile;
+    private final String attendanceDir;
+    private List<Student> students = new ArrayList<>();
+    private final Map<Integer, Student> byId = new HashMap<>();
+
+    public RosterShard(String section) {
+        this.section = section;
+        if (Student.DEFAULT_SECTION.equals(section)) {
+            this.dataFile = DEFAULT_DATA_FILE;
+            this.attendanceDir = DEFAULT_ATTENDANCE_DIR;
+        } else {
+            this.dataFile = DATA_FILE_PREFIX + section + DATA_FILE_SUFFIX;
+            this.attendanceDir = DEFAULT_ATTENDANCE_DIR + File.separator + section;
+        }
+    }
+
+    public String getSection() { return section; }
+    public String getDataFile() { return dataFile; }
+    public String getAttendanceDir() { return attendanceDir; }
+
+    public synchronized List<Student> getStudents() {
+        return new ArrayList<>(students);
+    }
+
+    public synchronized boolean isEmpty() {
+        return students.isEmpty();
+    }
+
+    synchronized void add(Student student) {
+        students.add(student);
+        byId.put(student.getId(), student);
+    }
+
+    synchronized boolean remove(Student student) {
+        byId.remove(student.getId());
+        return students.remove(student);
+    }
+
+    synchronized Student findById(int id) {
+        return byId.get(id);
+    }
+
+    synchronized int maxId() {
+        return students.stream()
+            .mapToInt(Student::getId)
+            .max()
+            .orElse(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized void load() {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new BufferedInputStream(new FileInputStream(dataFile)))) {
+            students = (List<Student>) ois.readObject();
+            for (Student student : students) {
+                student.setSection(section);
+            }
+        } catch (FileNotFoundException e) {
+            // First run for this section, file doesn't exist yet
+            students = new ArrayList<>();
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.printf("Error loading student data for section '%s': %s%n", section, e.getMessage());
+            students = new ArrayList<>();
+        }
+        byId.clear();
+        for (Student student : students) {
+            byId.put(student.getId(), student);
+        }
+    }
+
+    /** Saves the shard; returns false (after reporting the error) if the file could not be written. */
+    synchronized boolean save() {
+        try {
+            File temp = writeTemp();
+            try {
+                install(temp);
+            } catch (IOException e) {
+                temp.delete();
+                throw e;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.printf("Error saving student data for section '%s': %s%n", section, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * First half of a save: writes the shard next to its data file without
+     * touching the current one, so a failed batch commit leaves disk unchanged.
+     */
+    synchronized File writeTemp() throws IOException {
+        File temp = new File(dataFile + ".tmp");
+        try (ObjectOutputStream oos = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)))) {
+            oos.writeObject(students);
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        return temp;
+    }
+
+    /** Second half of a save: replaces the data file with a written temp file. */
+    void install(File temp) throws IOException {
+        Files.move(temp.toPath(), Paths.get(dataFile),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
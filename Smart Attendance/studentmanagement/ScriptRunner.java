@@ -0,0 +1,389 @@
+package studentmanagement;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Non-interactive command mode. A reader thread parses the script ahead of
+ * execution while the caller's thread applies commands in transactional
+ * batches: a batch ends at a "commit" line, after {@code batchSize} commands
+ * or at end of input, and is saved once. If any command in a batch fails to
+ * parse or execute, the whole batch is rolled back. A batch that was logged
+ * but could not be saved to every section is reported as PARTIAL: it stays
+ * applied and is saved with the next successful save.
+ *
+ * <pre>
+ *   # comment
+ *   add "Name" [section]
+ *   rename ID "New Name"
+ *   delete ID
+ *   marks ID 0-100
+ *   attend YYYY-MM-DD|today ID present|absent
+ *   results
+ *   commit
+ * </pre>
+ *
+ * Output is one tab-separated record per line:
+ * <pre>
+ *   OK        line  command  id  detail
+ *   ROW       id  name  section  marks  daysPresent  totalDays  percentage
+ *   ERR       line  message
+ *   COMMIT    batch  commands
+ *   ROLLBACK  batch  commands
+ *   PARTIAL   batch  commands
+ * </pre>
+ */
+public class ScriptRunner {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private enum Verb { ADD, RENAME, DELETE, MARKS, ATTEND, RESULTS, COMMIT }
+
+    /** A parsed script line; {@code error} is set instead of the arguments when parsing failed. */
+    private static class Command {
+        final int line;
+        final Verb verb;
+        final String error;
+        int id;
+        String text;
+        String section;
+        double marks;
+        LocalDate date;
+        boolean present;
+
+        Command(int line, Verb verb) {
+            this(line, verb, null);
+        }
+
+        Command(int line, Verb verb, String error) {
+            this.line = line;
+            this.verb = verb;
+            this.error = error;
+        }
+    }
+
+    // Marks the end of input on the parse queue
+    private static final Command END = new Command(0, null);
+    private static final int QUEUE_CAPACITY = 8192;
+
+    private final StudentManager studentManager;
+    private final AttendanceManager attendanceManager;
+    private final int batchSize;
+    private final PrintWriter out;
+
+    public ScriptRunner(StudentManager studentManager, AttendanceManager attendanceManager,
+                        int batchSize, OutputStream out) {
+        this.studentManager = studentManager;
+        this.attendanceManager = attendanceManager;
+        this.batchSize = Math.max(1, batchSize);
+        this.out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out)), false);
+    }
+
+    /** Runs the script to completion; returns 0 if every batch committed, 1 otherwise. */
+    public int run(Reader script) {
+        BlockingQueue<Command> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Thread parser = new Thread(() -> parseAll(script, queue), "script-parser");
+        parser.setDaemon(true);
+        parser.start();
+
+        int batchNumber = 0;
+        boolean allCommitted = true;
+        List<Command> batch = new ArrayList<>();
+        try {
+            while (true) {
+                Command command = queue.take();
+                boolean end = command == END;
+                if (!end && command.verb != Verb.COMMIT) {
+                    batch.add(command);
+                }
+                if (end || command.verb == Verb.COMMIT || batch.size() >= batchSize) {
+                    if (!batch.isEmpty()) {
+                        allCommitted &= executeBatch(++batchNumber, batch);
+                        batch.clear();
+                    }
+                    out.flush();
+                }
+                if (end) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            allCommitted = false;
+        }
+        out.flush();
+        return allCommitted ? 0 : 1;
+    }
+
+    private boolean executeBatch(int batchNumber, List<Command> batch) {
+        for (Command command : batch) {
+            if (command.error != null) {
+                rollback(batchNumber, batch, command.line, command.error, false);
+                return false;
+            }
+        }
+
+        List<String> results = new ArrayList<>(batch.size());
+        Map<String, Set<LocalDate>> attendanceDates = new TreeMap<>();
+        try {
+            studentManager.beginBatch();
+        } catch (IOException e) {
+            rollback(batchNumber, batch, batch.get(0).line, e.getMessage(), false);
+            return false;
+        }
+        for (Command command : batch) {
+            try {
+                Student student = execute(command, results);
+                if (command.verb == Verb.ATTEND) {
+                    attendanceDates.computeIfAbsent(student.getSection(), s -> new TreeSet<>()).add(command.date);
+                }
+            } catch (IllegalArgumentException e) {
+                rollback(batchNumber, batch, command.line, e.getMessage(), true);
+                return false;
+            }
+        }
+        String partial = null;
+        try {
+            studentManager.commitBatch();
+        } catch (StudentManager.PartialCommitException e) {
+            partial = e.getMessage();
+        } catch (IOException e) {
+            // commitBatch has already rolled back
+            rollback(batchNumber, batch, batch.get(batch.size() - 1).line, e.getMessage(), false);
+            return false;
+        }
+
+        // A script may mark only part of a section, so write only the marked
+        // students of the touched sections rather than listing the rest ABSENT
+        for (Map.Entry<String, Set<LocalDate>> entry : attendanceDates.entrySet()) {
+            RosterShard shard = studentManager.getShard(entry.getKey());
+            if (shard == null) continue;
+            for (LocalDate date : entry.getValue()) {
+                attendanceManager.saveMarkedAttendanceFile(shard, date);
+            }
+        }
+
+        for (String result : results) {
+            out.println(result);
+        }
+        if (partial != null) {
+            out.println("ERR\t" + batch.get(batch.size() - 1).line + "\t" + clean(partial));
+            out.println("PARTIAL\t" + batchNumber + "\t" + batch.size());
+            return false;
+        }
+        out.println("COMMIT\t" + batchNumber + "\t" + batch.size());
+        return true;
+    }
+
+    private void rollback(int batchNumber, List<Command> batch, int line, String message, boolean started) {
+        if (started) {
+            studentManager.rollbackBatch();
+        }
+        out.println("ERR\t" + line + "\t" + clean(message));
+        out.println("ROLLBACK\t" + batchNumber + "\t" + batch.size());
+    }
+
+    /** Applies one command; returns the student it changed, if any. */
+    private Student execute(Command c, List<String> results) {
+        Student student = null;
+        switch (c.verb) {
+            case ADD:
+                student = studentManager.addStudent(c.text, c.section);
+                results.add(ok(c, "add", student.getId(), student.getSection()));
+                break;
+            case RENAME:
+                student = requireStudent(studentManager.renameStudent(c.id, c.text), c.id);
+                results.add(ok(c, "rename", c.id, student.getName()));
+                break;
+            case DELETE:
+                student = requireStudent(studentManager.deleteStudent(c.id), c.id);
+                results.add(ok(c, "delete", c.id, ""));
+                break;
+            case MARKS:
+                student = requireStudent(studentManager.setStudentMarks(c.id, c.marks), c.id);
+                results.add(ok(c, "marks", c.id, String.format("%.2f", c.marks)));
+                break;
+            case ATTEND:
+                student = requireStudent(studentManager.recordAttendance(c.id, c.date, c.present), c.id);
+                results.add(ok(c, "attend", c.id, c.date + " " + (c.present ? "PRESENT" : "ABSENT")));
+                break;
+            case RESULTS:
+                for (Student s : studentManager.getStudents()) {
+                    results.add(String.format("ROW\t%d\t%s\t%s\t%.2f\t%d\t%d\t%.1f",
+                        s.getId(), clean(s.getName()), s.getSection(), s.getMarks(),
+                        s.getTotalDaysPresent(), s.getTotalDays(), s.getAttendancePercentage()));
+                }
+                results.add(ok(c, "results", 0, ""));
+                break;
+            default:
+                break;
+        }
+        return student;
+    }
+
+    private static Student requireStudent(Student student, int id) {
+        if (student == null) {
+            throw new IllegalArgumentException("Student not found with ID: " + id);
+        }
+        return student;
+    }
+
+    private static String ok(Command c, String verb, int id, String detail) {
+        return "OK\t" + c.line + "\t" + verb + "\t" + id + "\t" + clean(detail);
+    }
+
+    /** Keeps tabs and line breaks in names from splitting output records */
+    private static String clean(String s) {
+        return s == null ? "" : s.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    // --- Parsing ---
+
+    private static void parseAll(Reader script, BlockingQueue<Command> queue) {
+        try (BufferedReader reader = new BufferedReader(script)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                Command command = parse(lineNumber, line);
+                if (command != null) {
+                    queue.put(command);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading script: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Parses one line; returns null for blank lines and comments. */
+    static Command parse(int lineNumber, String line) {
+        List<String> tokens;
+        try {
+            tokens = tokenize(line);
+        } catch (IllegalArgumentException e) {
+            return new Command(lineNumber, null, e.getMessage());
+        }
+        if (tokens.isEmpty()) return null;
+
+        String word = tokens.get(0).toLowerCase();
+        Verb verb;
+        try {
+            verb = Verb.valueOf(word.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return new Command(lineNumber, null, "Unknown command: " + word);
+        }
+
+        Command c = new Command(lineNumber, verb);
+        try {
+            switch (verb) {
+                case ADD:
+                    expectArgs(tokens, 1, 2);
+                    c.text = requireName(tokens.get(1));
+                    c.section = tokens.size() > 2 ? tokens.get(2) : Student.DEFAULT_SECTION;
+                    if (!StudentManager.isValidSection(c.section)) {
+                        throw new IllegalArgumentException("Section may only contain letters, digits, '-' and '_'.");
+                    }
+                    c.section = StudentManager.normalizeSection(c.section);
+                    break;
+                case RENAME:
+                    expectArgs(tokens, 2, 2);
+                    c.id = parseId(tokens.get(1));
+                    c.text = requireName(tokens.get(2));
+                    break;
+                case DELETE:
+                    expectArgs(tokens, 1, 1);
+                    c.id = parseId(tokens.get(1));
+                    break;
+                case MARKS:
+                    expectArgs(tokens, 2, 2);
+                    c.id = parseId(tokens.get(1));
+                    c.marks = Double.parseDouble(tokens.get(2));
+                    if (!(c.marks >= 0 && c.marks <= 100)) {
+                        throw new IllegalArgumentException("Marks must be between 0 and 100.");
+                    }
+                    break;
+                case ATTEND:
+                    expectArgs(tokens, 3, 3);
+                    String date = tokens.get(1);
+                    c.date = date.equalsIgnoreCase("today") ? LocalDate.now() : LocalDate.parse(date);
+                    c.id = parseId(tokens.get(2));
+                    String status = tokens.get(3).toLowerCase();
+                    if (!status.equals("present") && !status.equals("absent")) {
+                        throw new IllegalArgumentException("Status must be 'present' or 'absent'.");
+                    }
+                    c.present = status.equals("present");
+                    break;
+                default:
+                    expectArgs(tokens, 0, 0);
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            return new Command(lineNumber, verb, "Invalid number: " + e.getMessage());
+        } catch (DateTimeParseException e) {
+            return new Command(lineNumber, verb, "Invalid date, use YYYY-MM-DD: " + e.getParsedString());
+        } catch (IllegalArgumentException e) {
+            return new Command(lineNumber, verb, e.getMessage());
+        }
+        return c;
+    }
+
+    private static void expectArgs(List<String> tokens, int min, int max) {
+        int args = tokens.size() - 1;
+        if (args < min || args > max) {
+            throw new IllegalArgumentException(String.format("'%s' expects %s argument(s), got %d",
+                tokens.get(0), min == max ? String.valueOf(min) : min + "-" + max, args));
+        }
+    }
+
+    private static int parseId(String token) {
+        return Integer.parseInt(token);
+    }
+
+    private static String requireName(String name) {
+        if (name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be empty!");
+        }
+        return name.trim();
+    }
+
+    /** Splits on whitespace; double quotes group words and support \" and \\ escapes. */
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        int n = line.length();
+        while (i < n) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '#') {
+                break;
+            } else if (c == '"') {
+                StringBuilder sb = new StringBuilder();
+                i++;
+                while (i < n && line.charAt(i) != '"') {
+                    if (line.charAt(i) == '\\' && i + 1 < n) i++;
+                    sb.append(line.charAt(i++));
+                }
+                if (i >= n) {
+                    throw new IllegalArgumentException("Unterminated quote");
+                }
+                i++;
+                tokens.add(sb.toString());
+            } else {
+                int start = i;
+                while (i < n && !Character.isWhitespace(line.charAt(i))) i++;
+                tokens.add(line.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+}
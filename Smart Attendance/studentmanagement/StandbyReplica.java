@@ -0,0 +1,141 @@
+package studentmanagement;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Warm standby: tails the primary's mutation stream and applies it to the
+ * local roster copy. Each received batch is applied, the touched sections are
+ * saved, and only then is the batch recorded in the local mutation log, so a
+ * reconnect resumes from the last change that actually reached disk.
+ */
+public class StandbyReplica {
+    private static final int MAX_BATCH = 1024;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final StudentManager studentManager;
+    private final AttendanceManager attendanceManager;
+    private final MutationLog log;
+    private final String host;
+    private final int port;
+    private volatile boolean promoted;
+    private volatile Socket socket;
+    private Thread worker;
+
+    public StandbyReplica(StudentManager studentManager, AttendanceManager attendanceManager,
+                          MutationLog log, String host, int port) {
+        this.studentManager = studentManager;
+        this.attendanceManager = attendanceManager;
+        this.log = log;
+        this.host = host;
+        this.port = port;
+    }
+
+    public void start() {
+        worker = new Thread(this::tailLoop, "standby-replica");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public long getAppliedSeq() {
+        return log.getLastSeq();
+    }
+
+    /** Stops tailing the primary; the local copy then becomes the roster of record. */
+    public void promote() {
+        promoted = true;
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // Closing only unblocks the reader
+            }
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void tailLoop() {
+        while (!promoted) {
+            try (Socket s = new Socket()) {
+                s.connect(new InetSocketAddress(host, port));
+                s.setTcpNoDelay(true);
+                socket = s;
+                if (promoted) return;
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                    s.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8);
+                out.write("FROM " + log.getLastSeq() + "\n");
+                out.flush();
+                System.out.printf("%nConnected to primary %s:%d, applied seq %d%n", host, port, log.getLastSeq());
+
+                List<Mutation> batch = new ArrayList<>(MAX_BATCH);
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith("ERROR ")) {
+                        // The primary cannot serve this copy (e.g. it is older than the log's checkpoint)
+                        System.err.println("Primary refused standby: " + line.substring(6));
+                        return;
+                    }
+                    batch.add(Mutation.decode(line));
+                    while (batch.size() < MAX_BATCH && in.ready() && (line = in.readLine()) != null) {
+                        batch.add(Mutation.decode(line));
+                    }
+                    applyBatch(batch);
+                    batch.clear();
+                    out.write("ACK " + log.getLastSeq() + "\n");
+                    out.flush();
+                    log.maybeCheckpoint();
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                if (!promoted) {
+                    System.err.println("Lost connection to primary: " + e.getMessage());
+                }
+            } finally {
+                socket = null;
+            }
+            if (!promoted) {
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void applyBatch(List<Mutation> batch) throws IOException {
+        // Throws before the batch is logged if a section could not be saved,
+        // so the reconnect re-requests it
+        studentManager.applyMutations(batch);
+
+        // The primary ships marks one student at a time, so only write rows for
+        // students that have a mark; unreplicated students must not appear ABSENT
+        Map<String, Set<LocalDate>> attendanceDates = new TreeMap<>();
+        for (Mutation m : batch) {
+            if (m.getType() == Mutation.Type.ATTENDANCE) {
+                Student student = studentManager.findStudentById(m.getStudentId());
+                if (student != null) {
+                    attendanceDates.computeIfAbsent(student.getSection(), s -> new TreeSet<>()).add(m.getDate());
+                }
+            }
+        }
+        for (Map.Entry<String, Set<LocalDate>> entry : attendanceDates.entrySet()) {
+            RosterShard shard = studentManager.getShard(entry.getKey());
+            for (LocalDate date : entry.getValue()) {
+                attendanceManager.saveMarkedAttendanceFile(shard, date);
+            }
+        }
+
+        log.appendReplicated(batch);
+        log.markDurable(log.getLastSeq());
+    }
+}
@@ -7,14 +7,21 @@ import java.util.Map;
 
 public class Student implements Serializable {
     private static final long serialVersionUID = 1L;
+    public static final String DEFAULT_SECTION = "default";
     private int id;
     private String name;
+    private String section;
     private Map<LocalDate, Boolean> attendance;
     private double marks;
 
     public Student(int id, String name) {
+        this(id, name, DEFAULT_SECTION);
+    }
+
+    public Student(int id, String name, String section) {
         this.id = id;
         this.name = name;
+        this.section = section;
         this.attendance = new HashMap<>();
         this.marks = 0.0;
     }
@@ -23,6 +30,9 @@ public class Student implements Serializable {
     public int getId() { return id; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
+    /** Records saved before sections existed deserialize with a null section */
+    public String getSection() { return section != null ? section : DEFAULT_SECTION; }
+    public void setSection(String section) { this.section = section; }
     public double getMarks() { return marks; }
     public void setMarks(double marks) { this.marks = marks; }
 
@@ -31,6 +41,10 @@ public class Student implements Serializable {
         attendance.put(date, isPresent);
     }
 
+    public boolean hasAttendanceOn(LocalDate date) {
+        return attendance.containsKey(date);
+    }
+
     public boolean isPresentOnDate(LocalDate date) {
         return attendance.getOrDefault(date, false);
     }
@@ -1,16 +1,37 @@
 package studentmanagement;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class StudentManager {
-    private static final String STUDENTS_FILE = "students.dat";
-    private List<Student> students;
+    private static final Pattern SECTION_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+    private final Map<String, RosterShard> shards = new ConcurrentSkipListMap<>();
+    // Student ID -> owning shard, so lookups don't scan the whole school
+    private final Map<Integer, RosterShard> shardIndex = new ConcurrentHashMap<>();
     private int nextId = 1;
+    private MutationLog mutationLog;
+    // Non-null while a batch is open: shards to save and mutations to log at commit
+    private Set<RosterShard> batchDirty;
+    private List<Mutation> batchMutations;
+    private Set<String> batchSections;
+    private int batchNextId;
+    // Sections holding changes that are logged but not yet saved (attendance
+    // marks awaiting the end-of-day save, or a failed save)
+    private final Set<RosterShard> unsavedShards = new HashSet<>();
     
     public StudentManager() {
-        this.students = new ArrayList<>();
-        loadStudents();
+        this(true);
+    }
+
+    /** @param announceLoad false keeps stdout clean for machine-readable script output */
+    public StudentManager(boolean announceLoad) {
+        loadStudents(announceLoad);
         updateNextId();
     }
 
@@ -51,6 +72,8 @@ public class StudentManager {
                 }
             } catch (NumberFormatException e) {
                 System.out.println("Please enter a valid number!");
+            } catch (UncheckedIOException e) {
+                System.err.println("Error: " + e.getCause().getMessage());
             }
         }
     }
@@ -64,33 +87,43 @@ public class StudentManager {
             return;
         }
         
-        Student student = new Student(nextId++, name);
-        students.add(student);
-        saveStudents();
-        System.out.printf("Student '%s' (ID: %d) added successfully!%n", name, student.getId());
+        System.out.print("Enter class/section (or press Enter for '" + Student.DEFAULT_SECTION + "'): ");
+        String section = sc.nextLine().trim();
+        if (section.isEmpty()) {
+            section = Student.DEFAULT_SECTION;
+        } else if (!isValidSection(section)) {
+            System.out.println("Section may only contain letters, digits, '-' and '_'.");
+            return;
+        }
+        
+        Student student = addStudent(name, section);
+        System.out.printf("Student '%s' (ID: %d) added to section '%s' successfully!%n",
+            name, student.getId(), student.getSection());
     }
     
     private void viewAllStudents() {
+        List<Student> students = getStudents();
         if (students.isEmpty()) {
             System.out.println("No students found!");
             return;
         }
         
         System.out.println("\n--- All Students ---");
-        System.out.printf("%-5s %-25s %15s%n", "ID", "Name", "Attendance %");
-        System.out.println("-".repeat(50));
+        System.out.printf("%-5s %-25s %-10s %15s%n", "ID", "Name", "Section", "Attendance %");
+        System.out.println("-".repeat(60));
         
         for (Student student : students) {
-            System.out.printf("%-5d %-25s %10.1f%%%n",
+            System.out.printf("%-5d %-25s %-10s %10.1f%%%n",
                 student.getId(),
                 student.getName(),
+                student.getSection(),
                 student.getAttendancePercentage());
         }
     }
     
     private void updateStudent(Scanner sc) {
         viewAllStudents();
-        if (students.isEmpty()) return;
+        if (isEmpty()) return;
         
         System.out.print("\nEnter student ID to update: ");
         try {
@@ -107,8 +140,7 @@ public class StudentManager {
             
             if (!newName.isEmpty()) {
                 String oldName = student.getName();
-                student.setName(newName);
-                saveStudents();
+                renameStudent(id, newName);
                 System.out.printf("Student name updated from '%s' to '%s'%n", oldName, newName);
             } else {
                 System.out.println("No changes made.");
@@ -121,7 +153,7 @@ public class StudentManager {
     
     private void deleteStudent(Scanner sc) {
         viewAllStudents();
-        if (students.isEmpty()) return;
+        if (isEmpty()) return;
         
         System.out.print("\nEnter student ID to delete: ");
         try {
@@ -137,8 +169,7 @@ public class StudentManager {
             String confirm = sc.nextLine().trim().toLowerCase();
             
             if (confirm.equals("y") || confirm.equals("yes")) {
-                students.remove(student);
-                saveStudents();
+                deleteStudent(id);
                 System.out.println("Student deleted successfully!");
             } else {
                 System.out.println("Deletion cancelled.");
@@ -151,7 +182,7 @@ public class StudentManager {
 
 	private void setStudentMarks(Scanner sc) {
 		viewAllStudents();
-		if (students.isEmpty()) return;
+		if (isEmpty()) return;
 
 		System.out.print("\nEnter student ID to set marks: ");
 		try {
@@ -166,60 +197,421 @@ public class StudentManager {
 			System.out.print("Enter marks (0-100): ");
 			String marksInput = sc.nextLine().trim();
 			double marks = Double.parseDouble(marksInput);
-			if (marks < 0 || marks > 100) {
+			if (!(marks >= 0 && marks <= 100)) {
 				System.out.println("Marks must be between 0 and 100.");
 				return;
 			}
 
-			student.setMarks(marks);
-			saveStudents();
+			setStudentMarks(id, marks);
 			System.out.printf("Marks for '%s' (ID: %d) set to %.2f%n", student.getName(), student.getId(), student.getMarks());
 		} catch (NumberFormatException e) {
 			System.out.println("Please enter valid numeric values!");
 		}
 	}
     
-    private Student findStudentById(int id) {
-        for (Student student : students) {
-            if (student.getId() == id) {
-                return student;
+    // --- Non-interactive operations; each one only rewrites the affected section's file ---
+
+    // Each change is logged before it is applied: if the log write fails nothing
+    // changes, and if the save fails the change stays logged and in memory.
+
+    public synchronized Student addStudent(String name, String section) {
+        section = normalizeSection(section);
+        emit(Mutation.add(nextId, name, section));
+        RosterShard shard = shards.computeIfAbsent(section, RosterShard::new);
+        Student student = new Student(nextId++, name, section);
+        shard.add(student);
+        shardIndex.put(student.getId(), shard);
+        persist(shard);
+        return student;
+    }
+
+    public synchronized Student renameStudent(int id, String newName) {
+        RosterShard shard = findShardForStudent(id);
+        if (shard == null) return null;
+        emit(Mutation.rename(id, newName));
+        Student student = shard.findById(id);
+        student.setName(newName);
+        persist(shard);
+        return student;
+    }
+
+    public synchronized Student deleteStudent(int id) {
+        RosterShard shard = findShardForStudent(id);
+        if (shard == null) return null;
+        emit(Mutation.delete(id));
+        Student student = shard.findById(id);
+        shard.remove(student);
+        shardIndex.remove(id);
+        persist(shard);
+        return student;
+    }
+
+    public synchronized Student setStudentMarks(int id, double marks) {
+        if (!(marks >= 0 && marks <= 100)) {
+            throw new IllegalArgumentException("Marks must be between 0 and 100.");
+        }
+        RosterShard shard = findShardForStudent(id);
+        if (shard == null) return null;
+        emit(Mutation.marks(id, marks));
+        Student student = shard.findById(id);
+        student.setMarks(marks);
+        persist(shard);
+        return student;
+    }
+
+    /** Callers save once after marking a whole day; inside a batch the commit saves it. */
+    public synchronized Student recordAttendance(int id, LocalDate date, boolean isPresent) {
+        RosterShard shard = findShardForStudent(id);
+        if (shard == null) return null;
+        emit(Mutation.attendance(id, date, isPresent));
+        Student student = shard.findById(id);
+        student.markAttendance(date, isPresent);
+        if (batchDirty != null) {
+            batchDirty.add(shard);
+        } else {
+            unsavedShards.add(shard);
+        }
+        return student;
+    }
+
+    // --- Transactional batches ---
+
+    /** Thrown by {@link #commitBatch()} when the batch was logged but some sections could not be swapped in. */
+    public static class PartialCommitException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public PartialCommitException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Starts a batch: until {@link #commitBatch()} or {@link #rollbackBatch()},
+     * mutations only change memory. Commit saves each touched section once and
+     * logs the batch's mutations in one append. Sections left unsaved by an
+     * earlier failure are saved first, since a rollback reloads from disk.
+     */
+    public synchronized void beginBatch() throws IOException {
+        if (batchDirty != null) {
+            throw new IllegalStateException("A batch is already open.");
+        }
+        unsavedShards.removeIf(RosterShard::save);
+        if (!unsavedShards.isEmpty()) {
+            throw new IOException("Section(s) " + sectionNames(unsavedShards)
+                + " still hold unsaved changes; not starting a batch that could discard them");
+        }
+        markDurable();
+        batchDirty = new HashSet<>();
+        batchMutations = new ArrayList<>();
+        batchSections = new HashSet<>(shards.keySet());
+        batchNextId = nextId;
+    }
+
+    /**
+     * Writes every touched section to a temp file in parallel, logs the batch,
+     * and only then swaps the files in. If a write or the log append fails the
+     * batch is rolled back and nothing is logged. If a swap fails the batch
+     * stays applied and logged, the section is kept for the next save, and a
+     * {@link PartialCommitException} is thrown.
+     */
+    public synchronized void commitBatch() throws IOException {
+        Set<RosterShard> dirty = batchDirty;
+        List<Mutation> mutations = batchMutations;
+        Map<RosterShard, File> staged = new ConcurrentHashMap<>();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        dirty.parallelStream().forEach(shard -> {
+            try {
+                staged.put(shard, shard.writeTemp());
+            } catch (IOException e) {
+                failures.add(shard.getSection() + ": " + e.getMessage());
+            }
+        });
+        if (!failures.isEmpty()) {
+            staged.values().forEach(File::delete);
+            rollbackBatch();
+            throw new IOException("Could not save section(s) " + failures);
+        }
+
+        if (mutationLog != null && !mutations.isEmpty()) {
+            try {
+                mutationLog.append(mutations);
+            } catch (IOException e) {
+                staged.values().forEach(File::delete);
+                rollbackBatch();
+                throw new IOException("Could not write the change log: " + e.getMessage(), e);
+            }
+        }
+
+        // The batch is logged now, so memory keeps it even if a section fails to swap in
+        clearBatch();
+        Set<RosterShard> failed = new HashSet<>();
+        for (Map.Entry<RosterShard, File> entry : staged.entrySet()) {
+            try {
+                entry.getKey().install(entry.getValue());
+            } catch (IOException e) {
+                entry.getValue().delete();
+                failed.add(entry.getKey());
+                failures.add(entry.getKey().getSection() + ": " + e.getMessage());
+            }
+        }
+        unsavedShards.removeAll(dirty);
+        unsavedShards.addAll(failed);
+        markDurable();
+        if (!failed.isEmpty()) {
+            throw new PartialCommitException("Could not save section(s) " + failures
+                + "; the changes are logged and will be saved with the next successful save");
+        }
+    }
+
+    /** Discards the batch by reloading the touched sections from their last saved state. */
+    public synchronized void rollbackBatch() {
+        Set<RosterShard> dirty = batchDirty;
+        shards.keySet().retainAll(batchSections);
+        nextId = batchNextId;
+        clearBatch();
+        dirty.parallelStream()
+            .filter(shard -> shards.get(shard.getSection()) == shard)
+            .forEach(RosterShard::load);
+        rebuildIndex();
+    }
+
+    private static String sectionNames(Collection<RosterShard> pending) {
+        return pending.stream().map(RosterShard::getSection).sorted().collect(Collectors.toList()).toString();
+    }
+
+    private void clearBatch() {
+        batchDirty = null;
+        batchMutations = null;
+        batchSections = null;
+    }
+
+    private void persist(RosterShard shard) {
+        if (batchDirty != null) {
+            batchDirty.add(shard);
+            return;
+        }
+        if (!shard.save()) {
+            unsavedShards.add(shard);
+            throw new UncheckedIOException(new IOException("Could not save section '" + shard.getSection()
+                + "'; the change is kept in memory and will be saved with the next successful save"));
+        }
+        unsavedShards.remove(shard);
+        markDurable();
+    }
+
+    /** Tells the log that everything emitted so far is on disk, unless some section is still unsaved. */
+    private void markDurable() {
+        if (mutationLog != null && unsavedShards.isEmpty()) {
+            mutationLog.markDurable(mutationLog.getLastSeq());
+        }
+    }
+
+    // --- Change capture / replication ---
+
+    /** Every mutation made through this manager is appended to the given log. */
+    public void setMutationLog(MutationLog mutationLog) {
+        this.mutationLog = mutationLog;
+    }
+
+    private void emit(Mutation mutation) {
+        if (batchMutations != null) {
+            batchMutations.add(mutation);
+        } else if (mutationLog != null) {
+            try {
+                mutationLog.append(Collections.singletonList(mutation));
+            } catch (IOException e) {
+                throw new UncheckedIOException(new IOException(
+                    "Could not write the change log, change not applied: " + e.getMessage(), e));
+            }
+        }
+    }
+
+    /**
+     * Applies mutations shipped from a primary without re-emitting them, then
+     * saves each touched section once. Re-applying an already applied
+     * mutation leaves the roster unchanged.
+     */
+    synchronized void applyMutations(List<Mutation> batch) throws IOException {
+        Set<RosterShard> touched = new HashSet<>();
+        for (Mutation m : batch) {
+            RosterShard shard = findShardForStudent(m.getStudentId());
+            Student student = shard != null ? shard.findById(m.getStudentId()) : null;
+            switch (m.getType()) {
+                case ADD:
+                    // An existing copy keeps its marks and attendance; only name and section are reset
+                    String section = normalizeSection(m.getSection());
+                    RosterShard target = shards.computeIfAbsent(section, RosterShard::new);
+                    if (student == null) {
+                        student = new Student(m.getStudentId(), m.getName(), section);
+                        target.add(student);
+                    } else if (shard != target) {
+                        shard.remove(student);
+                        touched.add(shard);
+                        student.setSection(section);
+                        target.add(student);
+                    }
+                    shardIndex.put(student.getId(), target);
+                    student.setName(m.getName());
+                    touched.add(target);
+                    nextId = Math.max(nextId, m.getStudentId() + 1);
+                    continue;
+                case DELETE:
+                    if (student != null) {
+                        shard.remove(student);
+                        shardIndex.remove(student.getId());
+                    }
+                    break;
+                case RENAME:
+                    if (student != null) student.setName(m.getName());
+                    break;
+                case MARKS:
+                    if (student != null) student.setMarks(m.getMarks());
+                    break;
+                case ATTENDANCE:
+                    if (student != null) student.markAttendance(m.getDate(), m.isPresent());
+                    break;
+            }
+            if (shard != null) touched.add(shard);
+        }
+        List<String> failed = touched.parallelStream()
+            .filter(shard -> !shard.save())
+            .map(RosterShard::getSection)
+            .collect(Collectors.toList());
+        if (!failed.isEmpty()) {
+            throw new IOException("Could not save section(s) " + failed);
+        }
+    }
+
+    public Student findStudentById(int id) {
+        RosterShard shard = findShardForStudent(id);
+        return shard != null ? shard.findById(id) : null;
+    }
+
+    private RosterShard findShardForStudent(int id) {
+        return shardIndex.get(id);
+    }
+
+    private void rebuildIndex() {
+        shardIndex.clear();
+        for (RosterShard shard : shards.values()) {
+            for (Student student : shard.getStudents()) {
+                shardIndex.put(student.getId(), shard);
             }
         }
-        return null;
+    }
+
+    public static boolean isValidSection(String section) {
+        return section != null && SECTION_PATTERN.matcher(section).matches();
+    }
+
+    /**
+     * Section names are case-insensitive: "10a" and "10A" are one section.
+     * Case-insensitive filesystems would otherwise map both to the same file.
+     */
+    public static String normalizeSection(String section) {
+        if (section.equalsIgnoreCase(Student.DEFAULT_SECTION)) {
+            return Student.DEFAULT_SECTION;
+        }
+        return section.toUpperCase(Locale.ROOT);
     }
     
     private void updateNextId() {
-        nextId = students.stream()
-            .mapToInt(Student::getId)
+        nextId = shards.values().stream()
+            .mapToInt(RosterShard::maxId)
             .max()
             .orElse(0) + 1;
     }
     
-    @SuppressWarnings("unchecked")
-    private void loadStudents() {
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(STUDENTS_FILE))) {
-            students = (List<Student>) ois.readObject();
+    /**
+     * Discovers every section data file in the working directory and loads
+     * them in parallel, one shard per task.
+     */
+    private void loadStudents(boolean announceLoad) {
+        shards.put(Student.DEFAULT_SECTION, new RosterShard(Student.DEFAULT_SECTION));
+        File[] files = new File(".").listFiles((d, name) ->
+            name.startsWith(RosterShard.DATA_FILE_PREFIX) && name.endsWith(RosterShard.DATA_FILE_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                String section = name.substring(RosterShard.DATA_FILE_PREFIX.length(),
+                    name.length() - RosterShard.DATA_FILE_SUFFIX.length());
+                if (!isValidSection(section)) continue;
+                String normalized = normalizeSection(section);
+                if (normalized.equals(section)) {
+                    shards.putIfAbsent(section, new RosterShard(section));
+                } else {
+                    migrateSectionFiles(section, normalized);
+                }
+            }
+        }
+
+        shards.values().parallelStream().forEach(RosterShard::load);
+        rebuildIndex();
+        if (announceLoad && !isEmpty()) {
             System.out.println("Student data loaded successfully!");
-        } catch (FileNotFoundException e) {
-            // First run, file doesn't exist yet
-            students = new ArrayList<>();
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Error loading student data: " + e.getMessage());
-            students = new ArrayList<>();
         }
     }
     
-    private void saveStudents() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(STUDENTS_FILE))) {
-            oos.writeObject(students);
+    /**
+     * Renames a section's files saved under a non-normalized name, or leaves
+     * them untouched with a warning if the normalized section already exists.
+     */
+    private void migrateSectionFiles(String section, String normalized) {
+        RosterShard legacy = new RosterShard(section);
+        RosterShard target = new RosterShard(normalized);
+        if (shards.containsKey(normalized) || new File(target.getDataFile()).exists()) {
+            System.err.printf("Ignoring %s: section '%s' already exists%n", legacy.getDataFile(), normalized);
+            return;
+        }
+        try {
+            Files.move(new File(legacy.getDataFile()).toPath(), new File(target.getDataFile()).toPath());
+            File legacyDir = new File(legacy.getAttendanceDir());
+            if (legacyDir.isDirectory()) {
+                Files.move(legacyDir.toPath(), new File(target.getAttendanceDir()).toPath());
+            }
+            shards.put(normalized, target);
         } catch (IOException e) {
-            System.err.println("Error saving student data: " + e.getMessage());
+            System.err.printf("Error renaming section '%s' to '%s': %s%n", section, normalized, e.getMessage());
         }
     }
 
+    /**
+     * Saves every section in parallel; returns false if any could not be saved.
+     * Single mutations save only their own shard.
+     */
+    public synchronized boolean saveStudents() {
+        List<RosterShard> failed = shards.values().parallelStream()
+            .filter(shard -> !shard.save())
+            .collect(Collectors.toList());
+        unsavedShards.clear();
+        unsavedShards.addAll(failed);
+        markDurable();
+        return failed.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return shards.values().stream().allMatch(RosterShard::isEmpty);
+    }
+
+    /** Cross-section view of the roster, ordered by student ID */
     public List<Student> getStudents() {
-        return new ArrayList<>(students);
+        List<Student> all = new ArrayList<>();
+        for (RosterShard shard : shards.values()) {
+            all.addAll(shard.getStudents());
+        }
+        all.sort(Comparator.comparingInt(Student::getId));
+        return all;
+    }
+
+    public List<String> getSections() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+    public RosterShard getShard(String section) {
+        return shards.get(normalizeSection(section));
+    }
+
+    public Collection<RosterShard> getShards() {
+        return new ArrayList<>(shards.values());
     }
 }